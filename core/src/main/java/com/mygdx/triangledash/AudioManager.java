@@ -0,0 +1,235 @@
+package com.mygdx.triangledash;
+
+import com.badlogic.gdx.audio.Music;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.utils.ObjectMap;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Plays music and sound effects on its own thread so the render thread never
+ * waits on the audio backend.
+ * <p>
+ * The game only queues commands (lock-free); the audio thread picks them up,
+ * runs music crossfades and keeps a small voice pool for sounds that can fire
+ * many times in a row (like the point sound).
+ * <p>
+ * Threading: the backend streams music from the render thread (on LWJGL3,
+ * {@code OpenALLwjgl3Audio.update()} decodes every playing track each frame),
+ * and {@code Music.play()}/{@code pause()} change which tracks it decodes. So
+ * those two calls only happen on the render thread: {@code crossfadeTo()}
+ * starts the incoming track before queueing the fade, and once a fade has
+ * finished the audio thread flags it, and the game's next {@code update()}
+ * pauses the tracks that faded to silence, so the backend stops decoding
+ * them. The audio thread itself makes just two kinds of calls:
+ * {@code Music.setVolume()}, which only sets the gain of a source that already
+ * exists, and {@code Sound.play()}/{@code stop()}, whose source pool nothing
+ * else in the game touches. Tracks are paused, never stopped, so no music
+ * source is freed while the game runs.
+ * <p>
+ * The audio thread wakes up every few milliseconds while a fade runs, and
+ * sleeps until the next command otherwise.
+ */
+public class AudioManager {
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(5); // How often the audio thread wakes up during a fade
+    private static final int MAX_VOICES = 4; // Max copies of one pooled sound playing at once
+    private static final long MIN_VOICE_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(40); // Drop repeats closer than this
+
+    private final ConcurrentLinkedQueue<Runnable> commands = new ConcurrentLinkedQueue<>(); // written by game, read by audio thread
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    // Crossfade state (audio thread only)
+    private final Music[] tracks;
+    private final float[] volumes; // Volume each track is at right now
+    private final float[] fadeFrom; // Volume each track started the fade at
+    private final float[] fadeTo; // Volume each track ends the fade at
+    private float fadeDuration;
+    private float fadeTime;
+    private boolean fading = false;
+    private int fadeGeneration; // Which crossfadeTo() call the running fade came from
+
+    // Play/pause state (render thread only)
+    private final boolean[] playing; // Track has been started and not paused since
+    private Music target; // Track the last crossfadeTo() faded to
+    private int generation = 0; // Bumped by every crossfadeTo()
+    private int pausedGeneration = 0; // Last generation whose silent tracks were paused
+    private volatile int finishedGeneration = 0; // Written by the audio thread when a fade is done
+
+    // Voice pools for rapid sounds (audio thread only)
+    private final ObjectMap<Sound, VoicePool> voicePools = new ObjectMap<>();
+
+    // Call on the render thread; tracks start silent and only play once faded to
+    public AudioManager(Music... tracks) {
+        this.tracks = tracks;
+        volumes = new float[tracks.length];
+        fadeFrom = new float[tracks.length];
+        fadeTo = new float[tracks.length];
+        playing = new boolean[tracks.length];
+        for (Music track : tracks) {
+            track.setVolume(0.0f);
+        }
+
+        thread = new Thread(this::run, "TriangleDash-Audio");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Fade from whatever music is playing to this one (seconds = 0 switches right away)
+    public void crossfadeTo(Music music, float volume, float seconds) {
+        int fade = ++generation;
+        target = music;
+        // Start (or resume) it here on the render thread; it is still silent until the fade raises it
+        for (int i = 0; i < tracks.length; i++) {
+            if (tracks[i] == music && !playing[i]) {
+                music.play();
+                playing[i] = true;
+            }
+        }
+        post(() -> startCrossfade(music, volume, seconds, fade));
+    }
+
+    // Call once per frame on the render thread: pauses music that has faded out
+    public void update() {
+        // A newer crossfadeTo() than the finished fade may need those tracks again
+        if (finishedGeneration != generation || pausedGeneration == generation) {
+            return;
+        }
+        pausedGeneration = generation;
+        for (int i = 0; i < tracks.length; i++) {
+            if (playing[i] && tracks[i] != target) {
+                tracks[i].pause();
+                playing[i] = false;
+            }
+        }
+    }
+
+    // Fire-and-forget sound effect
+    public void playSound(Sound sound, float volume) {
+        post(() -> sound.play(volume));
+    }
+
+    // Sound effect that may fire many times in a row; capped and rate-limited
+    public void playPooledSound(Sound sound, float volume) {
+        post(() -> playPooled(sound, volume));
+    }
+
+    // Stops the audio thread and waits for it; call before disposing any Music or Sound it uses
+    public void dispose() {
+        running = false;
+        LockSupport.unpark(thread);
+
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true; // Keep waiting, the thread may still be inside the backend
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Queue a command and wake the audio thread if it is idle
+    private void post(Runnable command) {
+        commands.add(command);
+        LockSupport.unpark(thread);
+    }
+
+    private void run() {
+        long lastTick = System.nanoTime();
+        while (running) {
+            Runnable command;
+            while ((command = commands.poll()) != null) {
+                command.run();
+            }
+
+            long now = System.nanoTime();
+            updateCrossfade((now - lastTick) / 1_000_000_000f);
+            lastTick = now;
+
+            if (fading) {
+                LockSupport.parkNanos(TICK_NANOS);
+            } else if (commands.isEmpty()) {
+                // Nothing to do until post() or dispose() unparks us; an unpark
+                // that lands before this park makes it return right away
+                LockSupport.park();
+                lastTick = System.nanoTime();
+            }
+        }
+    }
+
+    private void startCrossfade(Music music, float volume, float seconds, int generation) {
+        // Every track ramps from where it is now, so fading back to a track
+        // that is still fading out picks up from its current volume
+        for (int i = 0; i < tracks.length; i++) {
+            fadeFrom[i] = volumes[i];
+            fadeTo[i] = tracks[i] == music ? volume : 0;
+        }
+        fadeDuration = seconds;
+        fadeTime = 0;
+        fading = true;
+        fadeGeneration = generation;
+        updateCrossfade(0);
+    }
+
+    private void updateCrossfade(float delta) {
+        if (!fading) {
+            return;
+        }
+
+        fadeTime += delta;
+        float progress = fadeDuration <= 0 ? 1 : Math.min(fadeTime / fadeDuration, 1);
+
+        for (int i = 0; i < tracks.length; i++) {
+            float volume = fadeFrom[i] + (fadeTo[i] - fadeFrom[i]) * progress;
+            if (volume != volumes[i]) {
+                volumes[i] = volume;
+                tracks[i].setVolume(volume);
+            }
+        }
+
+        if (progress >= 1) {
+            fading = false;
+            finishedGeneration = fadeGeneration; // Lets the render thread pause the silent tracks
+        }
+    }
+
+    private void playPooled(Sound sound, float volume) {
+        VoicePool pool = voicePools.get(sound);
+        if (pool == null) {
+            pool = new VoicePool();
+            voicePools.put(sound, pool);
+        }
+
+        long now = System.nanoTime();
+        if (now - pool.lastPlay < MIN_VOICE_INTERVAL_NANOS) {
+            return; // Too soon after the last one; it would only sound louder, not different
+        }
+        pool.lastPlay = now;
+
+        // Pool is full: stop the oldest voice to make room
+        long oldest = pool.ids[pool.next];
+        if (oldest != -1) {
+            sound.stop(oldest);
+        }
+        pool.ids[pool.next] = sound.play(volume);
+        pool.next = (pool.next + 1) % MAX_VOICES;
+    }
+
+    // Ring of sound ids for one pooled sound
+    private static class VoicePool {
+        final long[] ids = new long[MAX_VOICES];
+        int next = 0;
+        long lastPlay = Long.MIN_VALUE / 2; // Far in the past so the first play is never dropped
+
+        VoicePool() {
+            Arrays.fill(ids, -1);
+        }
+    }
+}
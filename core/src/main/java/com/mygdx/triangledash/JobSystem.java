@@ -0,0 +1,255 @@
+package com.mygdx.triangledash;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.LongMap;
+import com.badlogic.gdx.utils.ObjectMap;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs work that doesn't have to finish this frame (saving, logging, ...) off
+ * the render thread.
+ * <p>
+ * Jobs run on a worker pool (virtual threads when the JDK has them), or on a
+ * single serial lane for work that must not overlap or reorder (stdout, the
+ * preferences file). Finished jobs go into a lock-free queue that the game
+ * drains at the start of each {@code render()}; callbacks run there on the GL
+ * thread, in the order the jobs were submitted. Latency, run time and queue
+ * depth are tracked per job name and logged with {@code Gdx.app.debug} every
+ * few seconds.
+ * <p>
+ * {@code submit} and {@code drainCompletions} must be called from the GL thread.
+ */
+public class JobSystem {
+    private static final int WORKERS = 2; // Pool size when virtual threads aren't available
+    private static final long JOB_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(250); // Submit -> callback
+    private static final long DRAIN_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(1); // Callbacks per frame
+    private static final int QUEUE_DEPTH_BUDGET = 16; // Jobs waiting, running or waiting for their callback
+    private static final long SUMMARY_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10); // How often metrics are logged
+
+    private final ExecutorService workers;
+    private final ExecutorService serialLane; // One thread, jobs run one after another in submit order
+    private final ConcurrentLinkedQueue<Completed<?>> completed = new ConcurrentLinkedQueue<>(); // many workers -> GL thread
+
+    // GL thread only
+    private final LongMap<Completed<?>> finishedEarly = new LongMap<>(); // Done, but an older job isn't yet
+    private long nextSequence = 0; // Given to the next submitted job
+    private long nextRelease = 0; // Next job whose callback may run
+    private int maxQueueDepth = 0;
+    private long lastSummaryTime = System.nanoTime();
+    private final ObjectMap<String, JobStats> stats = new ObjectMap<>();
+
+    public JobSystem() {
+        workers = createWorkers();
+        serialLane = Executors.newSingleThreadExecutor(daemonThreads("TriangleDash-Serial"));
+    }
+
+    // Run work on the worker pool and hand its result to onDone on the GL thread
+    public <T> void submit(String name, Callable<T> work, Consumer<T> onDone) {
+        submit(workers, name, work, onDone);
+    }
+
+    // Fire-and-forget work with no result
+    public void submit(String name, Runnable work) {
+        submit(name, asCallable(work), null);
+    }
+
+    // Like submit(), but jobs run one at a time in the order they were submitted
+    public <T> void submitSerial(String name, Callable<T> work, Consumer<T> onDone) {
+        submit(serialLane, name, work, onDone);
+    }
+
+    public void submitSerial(String name, Runnable work) {
+        submitSerial(name, asCallable(work), null);
+    }
+
+    // Call at the start of render(): runs callbacks of finished jobs on the GL thread
+    public void drainCompletions() {
+        long drainStart = System.nanoTime();
+
+        Completed<?> job;
+        while ((job = completed.poll()) != null) {
+            finishedEarly.put(job.sequence, job);
+        }
+
+        // Release in submission order; stop at the first job that is still running
+        while ((job = finishedEarly.remove(nextRelease)) != null) {
+            nextRelease++;
+            job.finish();
+
+            long latency = System.nanoTime() - job.submitTime;
+            record(job, latency);
+            if (latency > JOB_BUDGET_NANOS) {
+                Gdx.app.error("JobSystem", job.name + ": latency " + toMillis(latency) + " ms over budget of " + toMillis(JOB_BUDGET_NANOS) + " ms");
+            }
+        }
+
+        long now = System.nanoTime();
+        long drainTime = now - drainStart;
+        if (drainTime > DRAIN_BUDGET_NANOS) {
+            Gdx.app.error("JobSystem", "callbacks took " + toMillis(drainTime) + " ms this frame, budget is " + toMillis(DRAIN_BUDGET_NANOS) + " ms");
+        }
+
+        if (now - lastSummaryTime >= SUMMARY_INTERVAL_NANOS) {
+            lastSummaryTime = now;
+            logSummary();
+        }
+    }
+
+    // Logs the metrics of every job name (shown when the log level is LOG_DEBUG)
+    public void logSummary() {
+        Gdx.app.debug("JobSystem", "queue depth " + getQueueDepth() + " (max " + maxQueueDepth + ", budget " + QUEUE_DEPTH_BUDGET + ")");
+        for (ObjectMap.Entry<String, JobStats> entry : stats) {
+            JobStats jobStats = entry.value;
+            Gdx.app.debug("JobSystem", entry.key + ": " + jobStats.count + " done, " + jobStats.failed + " failed, latency avg "
+                    + jobStats.getAverageLatencyMillis() + " ms max " + toMillis(jobStats.maxLatencyNanos) + " ms, run max "
+                    + toMillis(jobStats.maxRunNanos) + " ms");
+        }
+    }
+
+    // Jobs submitted whose callback hasn't run yet
+    public int getQueueDepth() {
+        return (int) (nextSequence - nextRelease);
+    }
+
+    public int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    // Stats for one job name, or null if none has finished yet
+    public JobStats getStats(String name) {
+        return stats.get(name);
+    }
+
+    // Waits briefly for queued jobs (like a last save) to finish; their callbacks are dropped
+    public void dispose() {
+        workers.shutdown();
+        serialLane.shutdown();
+        try {
+            workers.awaitTermination(1, TimeUnit.SECONDS);
+            serialLane.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <T> void submit(ExecutorService executor, String name, Callable<T> work, Consumer<T> onDone) {
+        long sequence = nextSequence++;
+        int depth = getQueueDepth();
+        if (depth > maxQueueDepth) {
+            maxQueueDepth = depth;
+        }
+        if (depth > QUEUE_DEPTH_BUDGET) {
+            Gdx.app.error("JobSystem", "queue depth " + depth + " over budget of " + QUEUE_DEPTH_BUDGET);
+        }
+
+        long submitTime = System.nanoTime();
+        executor.execute(() -> {
+            long startTime = System.nanoTime();
+            T result = null;
+            Throwable error = null;
+            try {
+                result = work.call();
+            } catch (Throwable e) {
+                error = e; // Errors too: reported on the GL thread instead of killing the worker
+            } finally {
+                // Always post, or every later callback waits on this sequence forever
+                completed.add(new Completed<>(sequence, name, result, error, onDone, submitTime, startTime, System.nanoTime()));
+            }
+        });
+    }
+
+    private void record(Completed<?> job, long latency) {
+        JobStats jobStats = stats.get(job.name);
+        if (jobStats == null) {
+            jobStats = new JobStats();
+            stats.put(job.name, jobStats);
+        }
+        jobStats.count++;
+        if (job.error != null) {
+            jobStats.failed++;
+        }
+        jobStats.totalLatencyNanos += latency;
+        jobStats.maxLatencyNanos = Math.max(jobStats.maxLatencyNanos, latency);
+        jobStats.maxRunNanos = Math.max(jobStats.maxRunNanos, job.endTime - job.startTime);
+    }
+
+    private static Callable<Object> asCallable(Runnable work) {
+        return () -> {
+            work.run();
+            return null;
+        };
+    }
+
+    private static float toMillis(long nanos) {
+        return nanos / 1_000_000f;
+    }
+
+    // Virtual threads are JDK 21+, but the game still targets 17, so look them up at runtime
+    private static ExecutorService createWorkers() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(WORKERS, daemonThreads("TriangleDash-Job"));
+        }
+    }
+
+    // Don't keep the game alive after the window closes
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // Latency and run time numbers for one kind of job
+    public static class JobStats {
+        public int count;
+        public int failed; // Jobs that threw (exception or error); their callback was skipped
+        public long totalLatencyNanos; // Submit -> callback on GL thread
+        public long maxLatencyNanos;
+        public long maxRunNanos; // Time spent inside the job itself
+
+        public float getAverageLatencyMillis() {
+            return count == 0 ? 0 : toMillis(totalLatencyNanos / count);
+        }
+    }
+
+    // A finished job waiting for its callback
+    private static class Completed<T> {
+        final long sequence;
+        final String name;
+        final T result;
+        final Throwable error;
+        final Consumer<T> onDone;
+        final long submitTime, startTime, endTime;
+
+        Completed(long sequence, String name, T result, Throwable error, Consumer<T> onDone, long submitTime, long startTime, long endTime) {
+            this.sequence = sequence;
+            this.name = name;
+            this.result = result;
+            this.error = error;
+            this.onDone = onDone;
+            this.submitTime = submitTime;
+            this.startTime = startTime;
+            this.endTime = endTime;
+        }
+
+        void finish() {
+            if (error != null) {
+                Gdx.app.error("JobSystem", name + " failed", error);
+            } else if (onDone != null) {
+                onDone.accept(result);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.mygdx.triangledash;
+
+/**
+ * Picks the render scale for the scene (0.5 to 1.0 of the screen size) from
+ * measured frame time, so slow GPUs drop resolution instead of frame rate.
+ * <p>
+ * With vsync on, frame times come in whole refresh intervals: a frame either
+ * makes the refresh (1x) or misses it (2x or more), so this counts missed
+ * refreshes. Without vsync (some Linux drivers, software GL) a slow frame may
+ * only be a little over the target and never count as a miss, so the smoothed
+ * frame time is tracked as well. Scale goes down when frames keep missing or
+ * run slow on average, and creeps back up one step at a time while neither
+ * happens. If a step up misses again right away, the wait before the next try
+ * doubles, so a GPU sitting right at the edge doesn't flip between two scales.
+ */
+public class ResolutionScaler {
+    public static final float MIN_SCALE = 0.5f;
+    public static final float MAX_SCALE = 1.0f;
+    static final float STEP = 0.05f; // Smallest scale change, so the FrameBuffer isn't rebuilt every frame
+    static final float MISS_THRESHOLD = 1.5f; // Frame longer than this many refreshes = missed (halfway to 2x)
+    static final float SMOOTHING = 0.1f; // How fast the miss rate and average frame time follow new frames
+    static final float DOWN_MISS_RATE = 0.1f; // Lower the scale when more frames than this miss
+    static final float UP_MISS_RATE = 0.01f; // Only raise it when (almost) none do
+    static final float DOWN_FRAME_TIME = 1.05f; // Also lower it when frames average this many refreshes
+    static final float UP_FRAME_TIME = 1.02f; // And only raise it when they average under this
+    static final float DOWN_COOLDOWN = 0.25f; // Seconds to wait after a change before lowering again
+    static final float UP_COOLDOWN = 2.0f; // Seconds of steady frames before raising
+    static final float MAX_UP_COOLDOWN = 16.0f; // Longest wait after repeated failed raises
+    static final float MAX_DELTA = 0.25f; // Longer frames are loading/window hitches, not GPU load
+
+    private final float targetFrameTime;
+    private float missRate = 0;
+    private float averageFrameTime;
+    private float scale = MAX_SCALE;
+    private float timeSinceChange = 0;
+    private float upCooldown = UP_COOLDOWN;
+    private boolean raised = false; // Last change was a raise that hasn't held for upCooldown yet
+
+    // targetFps should be the display refresh rate, since vsync caps frames there
+    public ResolutionScaler(float targetFps) {
+        targetFrameTime = 1f / targetFps;
+        averageFrameTime = targetFrameTime;
+    }
+
+    // Feed the last frame time; returns the scale to render the next frame at
+    public float update(float delta) {
+        if (delta > MAX_DELTA) {
+            return scale;
+        }
+
+        boolean missed = delta > targetFrameTime * MISS_THRESHOLD;
+        missRate += ((missed ? 1 : 0) - missRate) * SMOOTHING;
+        averageFrameTime += (delta - averageFrameTime) * SMOOTHING;
+        timeSinceChange += delta;
+        boolean tooSlow = missRate > DOWN_MISS_RATE || averageFrameTime > targetFrameTime * DOWN_FRAME_TIME;
+        boolean steady = missRate < UP_MISS_RATE && averageFrameTime < targetFrameTime * UP_FRAME_TIME;
+
+        // The last raise held, so the next one can come at the normal pace
+        if (raised && timeSinceChange >= upCooldown) {
+            raised = false;
+            upCooldown = UP_COOLDOWN;
+        }
+
+        if (tooSlow && timeSinceChange >= DOWN_COOLDOWN && scale > MIN_SCALE) {
+            if (raised) {
+                // The raise didn't hold: wait longer before trying this scale again
+                upCooldown = Math.min(upCooldown * 2, MAX_UP_COOLDOWN);
+                raised = false;
+            }
+            // One step at a time: under vsync a missed refresh says the frame was too slow, not by how much
+            scale = Math.max(MIN_SCALE, snap(scale - STEP));
+            timeSinceChange = 0;
+            // Judge the new scale on its own frames
+            missRate = 0;
+            averageFrameTime = targetFrameTime;
+        } else if (steady && timeSinceChange >= upCooldown && scale < MAX_SCALE) {
+            scale = Math.min(MAX_SCALE, snap(scale + STEP));
+            timeSinceChange = 0;
+            raised = true;
+        }
+        return scale;
+    }
+
+    public float getScale() {
+        return scale;
+    }
+
+    // Round to the nearest step
+    private static float snap(float value) {
+        return Math.round(value / STEP) * STEP;
+    }
+}
@@ -7,8 +7,10 @@ import com.badlogic.gdx.audio.Music;
 import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.utils.ScreenUtils;
 import com.badlogic.gdx.utils.viewport.FitViewport;
@@ -50,7 +52,7 @@ public class TriangleDashGame extends ApplicationAdapter {
     private float wallSpacing = 600; // Spacing between walls
 
     // Game State
-    private enum GameState {MENU, PLAYING, GAME_OVER}
+    enum GameState {MENU, PLAYING, GAME_OVER}
 
     private GameState gameState = GameState.MENU; // Start in the Menu
     private BitmapFont font; // Font for displaying text
@@ -68,13 +70,24 @@ public class TriangleDashGame extends ApplicationAdapter {
     // music
     private Music menuMusic; // Background music for the main menu
     private Music gameMusic; // Background music for gameplay
-    private float gameMusicVolume = 0.0f; // Start muted for fade-in effect
-    private boolean fadingIn = false; // Track if fade-in is happening
+    private float menuMusicVolume = 0.2f; // Lower volume for the menu
+    private float gameMusicVolume = 0.5f; // Volume after the fade-in
+    private float gameFadeSeconds = 2.5f; // How long menu -> game crossfade takes
+    private float deathFadeSeconds = 0.5f; // How long game -> menu crossfade takes
+    private AudioManager audio; // Plays all audio on its own thread
     // sound effect
     private Sound deathSound; // Sound effect for player death
     private Sound pointSound; // Sound effect for passing through a gap
     private Sound buttonClickSound; // Sound effect for clicking "Play"
 
+    // dynamic resolution (scene drawn into a smaller FrameBuffer when frames run slow)
+    private boolean dynamicResolution; // Turn on with -Dtriangledash.dynamicResolution=true
+    private ResolutionScaler resolutionScaler; // Only created when dynamic resolution is on
+    private FrameBuffer sceneBuffer; // Only exists below full scale, rebuilt when the scale changes
+    private TextureRegion sceneRegion;
+
+    // background jobs (saving, debug logging) so render() doesn't wait on them
+    private JobSystem jobs;
 
     @Override
     public void create() {
@@ -108,6 +121,9 @@ public class TriangleDashGame extends ApplicationAdapter {
         font = new BitmapFont(); // Default LibGDX font
         font.getData().setScale(3); // Make text bigger
 
+        // Worker pool for saving and logging
+        jobs = new JobSystem();
+
         // Make save for High score
         prefs = Gdx.app.getPreferences("TriangleDashPrefs"); // Create storage
         highScore = prefs.getInteger("highScore", 0); // Load saved high score
@@ -123,22 +139,32 @@ public class TriangleDashGame extends ApplicationAdapter {
         // Music menu bgm
         menuMusic = Gdx.audio.newMusic(Gdx.files.internal("menu_bgm.mp3"));
         menuMusic.setLooping(true); // Loop the music
-        menuMusic.setVolume(0.2f); // Set a lower volume
-        menuMusic.play(); // Start playing the music
         // Music gameplay bgm
         gameMusic = Gdx.audio.newMusic(Gdx.files.internal("bgm1.mp3"));
         gameMusic.setLooping(true); // Loop the music
-        gameMusic.setVolume(0.0f); // Start at 0 volume (fade-in will increase this)
         // sound effects
         deathSound = Gdx.audio.newSound(Gdx.files.internal("boom.wav")); // Load the sound
         pointSound = Gdx.audio.newSound(Gdx.files.internal("coin.wav"));
         buttonClickSound = Gdx.audio.newSound(Gdx.files.internal("confirm.wav")); // Load the sound
 
+        // Both tracks start silent; switch straight to the menu music
+        audio = new AudioManager(menuMusic, gameMusic);
+        audio.crossfadeTo(menuMusic, menuMusicVolume, 0);
+
+        // Dynamic resolution (opt-in), aiming for the display's refresh rate since vsync caps frames there
+        dynamicResolution = Boolean.getBoolean("triangledash.dynamicResolution");
+        if (dynamicResolution) {
+            int refreshRate = Gdx.graphics.getDisplayMode().refreshRate;
+            resolutionScaler = new ResolutionScaler(refreshRate > 0 ? refreshRate : 60);
+        }
 
     }
 
     @Override
     public void render() {
+        jobs.drainCompletions(); // Finish background jobs on the GL thread first
+        audio.update(); // Pause music that has faded out so it isn't decoded any more
+
         float touchX = Gdx.input.getX() * (viewport.getWorldWidth() / Gdx.graphics.getWidth());
         float touchY = (Gdx.graphics.getHeight() - Gdx.input.getY()) * (viewport.getWorldHeight() / Gdx.graphics.getHeight());
 
@@ -153,16 +179,13 @@ public class TriangleDashGame extends ApplicationAdapter {
                     touchY >= playAgainPosition.y && touchY <= playAgainPosition.y + playAgainHeight) {
 
                 // click sound effect
-                buttonClickSound.play(0.2f);
+                audio.playSound(buttonClickSound, 0.2f);
 
                 gameState = GameState.PLAYING; // Start the game
                 score = 0; // Reset score
-                menuMusic.stop(); // stop menu_bgm when gameState = PLAYING
 
-                // start gameplay bgm
-                gameMusic.play(); // Start game music
-                fadingIn = true; // Enable fade-in effect
-                gameMusic.setVolume(0.0f); // Ensure it starts at 0 volume
+                // fade from menu_bgm to gameplay bgm
+                audio.crossfadeTo(gameMusic, gameMusicVolume, gameFadeSeconds);
             }
         }
 
@@ -177,7 +200,7 @@ public class TriangleDashGame extends ApplicationAdapter {
                     touchY >= playAgainPosition.y && touchY <= playAgainPosition.y + playAgainHeight) {
 
                 // click sound effect
-                buttonClickSound.play(0.2f);
+                audio.playSound(buttonClickSound, 0.2f);
 
                 restartGame(); // Restart the game properly
             }
@@ -187,6 +210,10 @@ public class TriangleDashGame extends ApplicationAdapter {
             update(); // Only update if the game is in PLAYING mode
         }
 
+        if (dynamicResolution) {
+            resolutionScaler.update(Gdx.graphics.getDeltaTime());
+        }
+
         draw();
     }
 
@@ -201,16 +228,6 @@ public class TriangleDashGame extends ApplicationAdapter {
             backgroundY = 0;
         }
 
-        // Fade in the game music
-        if (fadingIn) {
-            gameMusicVolume += Gdx.graphics.getDeltaTime() * 0.2f; // Increase volume gradually
-            if (gameMusicVolume >= 0.5f) { // Target volume level
-                gameMusicVolume = 0.5f;
-                fadingIn = false; // Stop fading in
-            }
-            gameMusic.setVolume(gameMusicVolume); // Apply volume change
-        }
-
         // Handle player movement
         if (movingRight) {
             playerX += playerSpeed * delta;
@@ -251,17 +268,17 @@ public class TriangleDashGame extends ApplicationAdapter {
                 wall.passed = true; // Mark this wall as passed
                 score++; // Increase score
 
-                // play pointSound
-                pointSound.play(0.6f);
+                // play pointSound (pooled, so walls passed close together don't stack up)
+                audio.playPooledSound(pointSound, 0.6f);
 
-                System.out.println("Score: " + score); // Debug message
+                log("Score: " + score); // Debug message
             }
         }
 
         // Check collision after updating walls
         for (Wall wall : walls) {
             if (checkCollision(wall)) {
-                System.out.println("Game Over!"); // Debug message
+                log("Game Over!"); // Debug message
                 scrollSpeed = 0; // Stop background scrolling
                 wallSpeed = 0; // Stop walls from moving
                 playerSpeed = 0; // Stop player movement
@@ -270,8 +287,11 @@ public class TriangleDashGame extends ApplicationAdapter {
                 if (score > highScore) {
                     highScore = score;
                     prefs.putInteger("highScore", highScore); // Save new high score
-                    prefs.flush(); // Write to storage
-                    System.out.println("New High Score Saved: " + highScore); // Debug message
+                    int savedScore = highScore;
+                    jobs.submitSerial("save high score", () -> {
+                        prefs.flush(); // Write to storage
+                        return savedScore;
+                    }, saved -> log("New High Score Saved: " + saved)); // Debug message once it's on disk
                 }
 
 
@@ -282,6 +302,16 @@ public class TriangleDashGame extends ApplicationAdapter {
 
     }
 
+    // Print debug messages on the serial lane so stdout never blocks the frame and stays in order
+    private void log(String message) {
+        jobs.submitSerial("log", () -> System.out.println(message));
+    }
+
+    // Current screen (used by the render budget test to follow its script)
+    GameState getGameState() {
+        return gameState;
+    }
+
     // Restart method
     public void restartGame() {
         // Reset player position
@@ -305,13 +335,8 @@ public class TriangleDashGame extends ApplicationAdapter {
             walls.add(new Wall(gapX, startY, viewport));
         }
 
-        // menuMusic stop
-        menuMusic.stop();
-
-        // restart gameMusic
-        gameMusic.play();
-        gameMusic.setVolume(0.0f); // Start at 0 volume
-        fadingIn = true; // Enable fade-in effect
+        // fade from menu_bgm back to gameplay bgm
+        audio.crossfadeTo(gameMusic, gameMusicVolume, gameFadeSeconds);
 
         // Switch back to playing mode
         gameState = GameState.PLAYING;
@@ -343,16 +368,10 @@ public class TriangleDashGame extends ApplicationAdapter {
         // Check if player overlaps with either wall
         if (playerBounds.overlaps(leftWall) || playerBounds.overlaps(rightWall)) {
             // play death sound effect
-            deathSound.play(0.7f);
+            audio.playSound(deathSound, 0.7f);
 
-            // Stop game music
-            gameMusic.stop();
-            fadingIn = false; // Cancel fade-in if still running
-
-            // Restart menu music
-            if (!menuMusic.isPlaying()) {
-                menuMusic.play();
-            }
+            // Fade from game music back to menu music
+            audio.crossfadeTo(menuMusic, menuMusicVolume, deathFadeSeconds);
 
             return true; // Collision detected
         }
@@ -363,37 +382,47 @@ public class TriangleDashGame extends ApplicationAdapter {
 
     // draw method
     public void draw() {
-        ScreenUtils.clear(Color.BLACK); // Clear screen
-
-        viewport.apply();
         camera.update();
-        spriteBatch.setProjectionMatrix(viewport.getCamera().combined);
 
-        spriteBatch.begin(); // Begin once
+        if (dynamicResolution && resolutionScaler.getScale() < ResolutionScaler.MAX_SCALE) {
+            // Draw the scene into the smaller FrameBuffer, then stretch it over the screen
+            updateSceneBuffer();
+            sceneBuffer.begin();
+            ScreenUtils.clear(Color.BLACK); // Clear FrameBuffer
+            spriteBatch.setProjectionMatrix(camera.combined);
+            spriteBatch.begin();
+            drawScene();
+            spriteBatch.end();
+            sceneBuffer.end();
+
+            ScreenUtils.clear(Color.BLACK); // Clear screen
+            viewport.apply();
+            spriteBatch.begin();
+            spriteBatch.draw(sceneRegion, 0, 0, viewport.getWorldWidth(), viewport.getWorldHeight());
+        } else {
+            disposeSceneBuffer(); // Back at full scale, don't keep the GPU memory around
+            ScreenUtils.clear(Color.BLACK); // Clear screen
+            viewport.apply();
+            spriteBatch.setProjectionMatrix(camera.combined);
+            spriteBatch.begin();
+            drawScene();
+        }
+
+        // Text and buttons always at native resolution, on top of the scene
+        drawUi();
+
+        spriteBatch.end(); // End once at the bottom
+    }
 
+    // Background, walls and player (can be drawn at a lower resolution)
+    private void drawScene() {
         // Draw background (always visible)
         float worldWidth = viewport.getWorldWidth();
         spriteBatch.draw(backgroundImage, 0, backgroundY, worldWidth, 1920);
         spriteBatch.draw(backgroundImage, 0, backgroundY + 1920, worldWidth, 1920);
 
-        // If in MENU, only draw the menu UI and exit
+        // Menu only shows the background behind its UI
         if (gameState == GameState.MENU) {
-            GlyphLayout titleText = new GlyphLayout(font, "Triangle Dash");
-            GlyphLayout highScoreText = new GlyphLayout(font, "Top Score: " + highScore);
-
-            float titleX = (viewport.getWorldWidth() - titleText.width) / 2;
-            float titleY = viewport.getWorldHeight() / 1.5f;
-
-            float highScoreX = (viewport.getWorldWidth() - highScoreText.width) / 2;
-            float highScoreY = titleY - 100;
-
-            font.draw(spriteBatch, titleText, titleX, titleY);
-            font.draw(spriteBatch, highScoreText, highScoreX, highScoreY);
-
-            // Draw Play Button
-            spriteBatch.draw(playAgainRegion, playAgainPosition.x, playAgainPosition.y, playAgainWidth, playAgainHeight);
-
-            spriteBatch.end(); // End the batch early and return
             return;
         }
 
@@ -412,6 +441,43 @@ public class TriangleDashGame extends ApplicationAdapter {
             }
         }
 
+        // Draw the player (only in PLAYING or GAME_OVER)
+        // Determine rotation angle based on movement direction
+        float rotationAngle = movingRight ? -45 : 45; // Rotate right when moving right, left when moving left
+
+        spriteBatch.draw(triangleTexture,
+                playerX, playerY,                  // Position
+                playerSize / 2, playerSize / 2,    // Rotation origin (center of the triangle)
+                playerSize, playerSize,            // Width and height
+                1, 1,                              // Scale
+                rotationAngle,                     // Rotation angle
+                0, 0,
+                triangleTexture.getWidth(), triangleTexture.getHeight(), // Source width/height
+                false, false                        // Flip texture
+        );
+    }
+
+    // Text, score and buttons (always native resolution)
+    private void drawUi() {
+        // If in MENU, only draw the menu UI
+        if (gameState == GameState.MENU) {
+            GlyphLayout titleText = new GlyphLayout(font, "Triangle Dash");
+            GlyphLayout highScoreText = new GlyphLayout(font, "Top Score: " + highScore);
+
+            float titleX = (viewport.getWorldWidth() - titleText.width) / 2;
+            float titleY = viewport.getWorldHeight() / 1.5f;
+
+            float highScoreX = (viewport.getWorldWidth() - highScoreText.width) / 2;
+            float highScoreY = titleY - 100;
+
+            font.draw(spriteBatch, titleText, titleX, titleY);
+            font.draw(spriteBatch, highScoreText, highScoreX, highScoreY);
+
+            // Draw Play Button
+            spriteBatch.draw(playAgainRegion, playAgainPosition.x, playAgainPosition.y, playAgainWidth, playAgainHeight);
+            return;
+        }
+
         // Display score in the top left (only when playing)
         if (gameState == GameState.PLAYING) {
             font.setColor(Color.WHITE); // Set text color to white
@@ -423,24 +489,6 @@ public class TriangleDashGame extends ApplicationAdapter {
             font.draw(spriteBatch, scoreText, scoreX, scoreY);
         }
 
-        // Draw the player (only in PLAYING or GAME_OVER)
-        if (gameState == GameState.PLAYING || gameState == GameState.GAME_OVER) {
-            // Determine rotation angle based on movement direction
-            float rotationAngle = movingRight ? -45 : 45; // Rotate right when moving right, left when moving left
-
-            spriteBatch.draw(triangleTexture,
-                    playerX, playerY,                  // Position
-                    playerSize / 2, playerSize / 2,    // Rotation origin (center of the triangle)
-                    playerSize, playerSize,            // Width and height
-                    1, 1,                              // Scale
-                    rotationAngle,                     // Rotation angle
-                    0, 0,
-                    triangleTexture.getWidth(), triangleTexture.getHeight(), // Source width/height
-                    false, false                        // Flip texture
-            );
-        }
-
-
         // If game is over, show "Game Over" screen
         if (gameState == GameState.GAME_OVER) {
             GlyphLayout gameOverText = new GlyphLayout(font, "Game Over");
@@ -462,8 +510,35 @@ public class TriangleDashGame extends ApplicationAdapter {
 
             spriteBatch.draw(playAgainRegion, playAgainPosition.x, playAgainPosition.y, playAgainWidth, playAgainHeight);
         }
+    }
+
+    // Make sure the scene FrameBuffer matches the current scale and screen size
+    private void updateSceneBuffer() {
+        // Viewport sizes are in logical pixels; on HiDPI screens the backbuffer has more
+        float pixelsX = Gdx.graphics.getWidth() > 0 ? Gdx.graphics.getBackBufferWidth() / (float) Gdx.graphics.getWidth() : 1;
+        float pixelsY = Gdx.graphics.getHeight() > 0 ? Gdx.graphics.getBackBufferHeight() / (float) Gdx.graphics.getHeight() : 1;
+
+        float scale = resolutionScaler.getScale();
+        int width = Math.max(1, Math.round(viewport.getScreenWidth() * pixelsX * scale));
+        int height = Math.max(1, Math.round(viewport.getScreenHeight() * pixelsY * scale));
+
+        if (sceneBuffer != null && sceneBuffer.getWidth() == width && sceneBuffer.getHeight() == height) {
+            return; // Still the right size
+        }
 
-        spriteBatch.end(); // End once at the bottom
+        disposeSceneBuffer();
+        sceneBuffer = new FrameBuffer(Pixmap.Format.RGB888, width, height, false);
+        sceneBuffer.getColorBufferTexture().setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear); // Smooth upscale
+        sceneRegion = new TextureRegion(sceneBuffer.getColorBufferTexture());
+        sceneRegion.flip(false, true); // FrameBuffer textures are upside down
+    }
+
+    private void disposeSceneBuffer() {
+        if (sceneBuffer != null) {
+            sceneBuffer.dispose();
+            sceneBuffer = null;
+            sceneRegion = null;
+        }
     }
 
 
@@ -480,8 +555,14 @@ public class TriangleDashGame extends ApplicationAdapter {
         wallTexture.dispose();
         font.dispose();
         playAgainTexture.dispose();
+        disposeSceneBuffer();
+
+        // Let pending saves finish
+        jobs.logSummary();
+        jobs.dispose();
 
-        // Dispose music and sound effects
+        // Stop the audio thread, then dispose music and sound effects
+        audio.dispose();
         menuMusic.dispose();
         gameMusic.dispose();
         deathSound.dispose();
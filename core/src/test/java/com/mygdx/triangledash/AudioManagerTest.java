@@ -0,0 +1,209 @@
+package com.mygdx.triangledash;
+
+import com.badlogic.gdx.audio.Music;
+import com.badlogic.gdx.audio.Sound;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AudioManagerTest {
+
+    // Music stub that remembers every call and the thread it came from
+    private static class FakeMusic {
+        final ConcurrentLinkedQueue<String> calls = new ConcurrentLinkedQueue<>(); // "method@thread"
+        final ConcurrentLinkedQueue<Float> volumes = new ConcurrentLinkedQueue<>();
+        volatile float volume;
+        final Music music = Stubs.create(Music.class, (method, args) -> {
+            calls.add(method + "@" + Thread.currentThread().getName());
+            if (method.equals("setVolume")) {
+                volume = (Float) args[0];
+                volumes.add(volume);
+            } else if (method.equals("getVolume")) {
+                return volume;
+            }
+            return Stubs.DEFAULT;
+        });
+    }
+
+    // Sound stub that hands out ids and remembers which were stopped
+    private static class FakeSound {
+        final List<Long> played = new ArrayList<>(); // Only touched by the audio thread until dispose()
+        final List<Long> stopped = new ArrayList<>();
+        final Sound sound = Stubs.create(Sound.class, (method, args) -> {
+            if (method.equals("play")) {
+                long id = played.size() + 1;
+                played.add(id);
+                return id;
+            } else if (method.equals("stop") && args != null) {
+                stopped.add((Long) args[0]);
+            }
+            return Stubs.DEFAULT;
+        });
+    }
+
+    @Test
+    public void musicIsOnlyStartedAndPausedOnTheRenderThread() throws InterruptedException {
+        FakeMusic menu = new FakeMusic();
+        FakeMusic game = new FakeMusic();
+        FakeSound point = new FakeSound();
+        String renderThread = Thread.currentThread().getName();
+
+        AudioManager audio = new AudioManager(menu.music, game.music);
+        // Hammer it the way rapid deaths and restarts would
+        for (int i = 0; i < 2000; i++) {
+            audio.crossfadeTo(i % 2 == 0 ? game.music : menu.music, 0.5f, i % 3 == 0 ? 0 : 0.01f);
+            audio.playPooledSound(point.sound, 0.6f);
+            audio.update();
+            if (i % 100 == 0) {
+                Thread.sleep(1);
+            }
+        }
+        Thread.sleep(50);
+        audio.update();
+        audio.dispose();
+
+        for (FakeMusic music : new FakeMusic[]{menu, game}) {
+            for (String call : music.calls) {
+                String method = call.substring(0, call.indexOf('@'));
+                String thread = call.substring(call.indexOf('@') + 1);
+                if (!method.equals("setVolume")) {
+                    assertEquals(call + " must run on the render thread", renderThread, thread);
+                }
+            }
+            assertTrue(music.calls.contains("play@" + renderThread));
+            assertTrue(music.calls.stream().noneMatch(call -> call.startsWith("stop@")));
+        }
+    }
+
+    @Test
+    public void silentMusicIsPausedAndResumedBeforeFadingIn() throws InterruptedException {
+        FakeMusic menu = new FakeMusic();
+        FakeMusic game = new FakeMusic();
+        AudioManager audio = new AudioManager(menu.music, game.music);
+
+        audio.crossfadeTo(menu.music, 0.2f, 0);
+        assertTrue("the incoming track plays before its fade is queued", menu.calls.contains("play@" + Thread.currentThread().getName()));
+        assertTrue("a track nobody faded to never plays", game.calls.stream().noneMatch(call -> call.startsWith("play@")));
+
+        audio.crossfadeTo(game.music, 0.5f, 0.05f);
+        // Still fading: the menu music keeps playing
+        audio.update();
+        assertTrue(menu.calls.stream().noneMatch(call -> call.startsWith("pause@")));
+
+        Thread.sleep(100);
+        audio.update();
+        assertEquals(1, menu.calls.stream().filter(call -> call.startsWith("pause@")).count());
+        assertTrue(game.calls.stream().noneMatch(call -> call.startsWith("pause@")));
+
+        // Back to the menu: it is resumed right away, then faded in
+        menu.calls.clear();
+        audio.crossfadeTo(menu.music, 0.2f, 0.05f);
+        assertEquals("play", menu.calls.peek().substring(0, menu.calls.peek().indexOf('@')));
+        audio.dispose();
+    }
+
+    @Test
+    public void fadeFinishedBeforeANewCrossfadeDoesNotPauseItsTrack() throws InterruptedException {
+        FakeMusic menu = new FakeMusic();
+        FakeMusic game = new FakeMusic();
+        AudioManager audio = new AudioManager(menu.music, game.music);
+
+        audio.crossfadeTo(game.music, 0.5f, 0);
+        Thread.sleep(50);
+        // The fade to game music is done, but the game asks for the menu again before update()
+        audio.crossfadeTo(menu.music, 0.2f, 10);
+        audio.update();
+        audio.dispose();
+
+        assertTrue(menu.calls.stream().noneMatch(call -> call.startsWith("pause@")));
+        assertTrue(game.calls.stream().noneMatch(call -> call.startsWith("pause@")));
+    }
+
+    @Test
+    public void audioThreadSleepsWhenIdle() throws InterruptedException {
+        FakeMusic menu = new FakeMusic();
+        FakeSound point = new FakeSound();
+        AudioManager audio = new AudioManager(menu.music);
+        audio.crossfadeTo(menu.music, 0.2f, 0);
+        Thread.sleep(50);
+
+        Thread audioThread = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("TriangleDash-Audio"))
+                .findFirst().orElseThrow(AssertionError::new);
+        assertEquals("parked with no timeout", Thread.State.WAITING, audioThread.getState());
+
+        // A new command wakes it up
+        audio.playSound(point.sound, 0.2f);
+        Thread.sleep(50);
+        audio.dispose();
+        assertEquals(1, point.played.size());
+    }
+
+    @Test
+    public void fadingBackToAnOutgoingTrackStartsFromItsCurrentVolume() throws InterruptedException {
+        FakeMusic menu = new FakeMusic();
+        FakeMusic game = new FakeMusic();
+        AudioManager audio = new AudioManager(menu.music, game.music);
+
+        audio.crossfadeTo(game.music, 0.5f, 0);
+        Thread.sleep(50);
+        assertEquals(0.5f, game.volume, 0.0001f);
+
+        // Die: game music starts a slow fade out...
+        audio.crossfadeTo(menu.music, 0.2f, 10);
+        Thread.sleep(50);
+        float volumeAtRestart = game.volume;
+        assertTrue(volumeAtRestart > 0.45f);
+
+        // ...and restart before it is done
+        game.volumes.clear();
+        audio.crossfadeTo(game.music, 0.5f, 10);
+        Thread.sleep(50);
+        audio.dispose();
+
+        for (float volume : game.volumes) {
+            assertTrue("game music dropped to " + volume, volume >= volumeAtRestart - 0.01f);
+        }
+    }
+
+    @Test
+    public void disposeWaitsForTheAudioThread() throws InterruptedException {
+        FakeMusic menu = new FakeMusic();
+        AudioManager audio = new AudioManager(menu.music);
+        audio.crossfadeTo(menu.music, 0.5f, 0.2f);
+        Thread.sleep(20);
+
+        audio.dispose();
+        int callsAtDispose = menu.calls.size();
+        Thread.sleep(50);
+        assertEquals("audio thread still running after dispose()", callsAtDispose, menu.calls.size());
+    }
+
+    @Test
+    public void pooledSoundIsRateLimitedAndCapped() throws InterruptedException {
+        FakeSound point = new FakeSound();
+        AudioManager audio = new AudioManager();
+
+        // A burst within one frame plays once
+        for (int i = 0; i < 50; i++) {
+            audio.playPooledSound(point.sound, 0.6f);
+        }
+        Thread.sleep(60);
+        assertEquals(1, point.played.size());
+
+        // Spaced out plays go through, but only 4 voices at once: the 5th and 6th stop the oldest
+        for (int i = 0; i < 5; i++) {
+            audio.playPooledSound(point.sound, 0.6f);
+            Thread.sleep(60);
+        }
+        audio.dispose();
+
+        assertEquals(6, point.played.size());
+        assertEquals(List.of(1L, 2L), point.stopped);
+    }
+}
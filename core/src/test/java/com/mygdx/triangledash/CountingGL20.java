@@ -0,0 +1,118 @@
+package com.mygdx.triangledash;
+
+import com.badlogic.gdx.graphics.GL20;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.IntBuffer;
+import java.util.function.LongSupplier;
+
+/**
+ * A GL20 that draws nothing and counts draw calls, texture binds and
+ * framebuffer builds. Just enough of GL is faked (handles, compile/link
+ * status, complete framebuffers) for SpriteBatch, Texture, BitmapFont and
+ * FrameBuffer to work.
+ * <p>
+ * Every call through the proxy boxes its arguments into a fresh array, which
+ * the game wouldn't pay on a real GL. So each frame's calls are recorded, and
+ * {@link #measureStubBytes} replays them with no side effects to find out how
+ * much of the frame's allocation was the stub's own.
+ */
+final class CountingGL20 {
+    private static final int MAX_RECORDED_CALLS = 16384;
+
+    final GL20 gl;
+    int drawCalls;
+    int textureBinds;
+    int framebufferBinds;
+    int framebuffersCreated;
+    private int nextHandle = 1;
+
+    // GL calls made since the last reset(), kept so they can be replayed
+    private final Method[] calls = new Method[MAX_RECORDED_CALLS];
+    private final Object[][] callArgs = new Object[MAX_RECORDED_CALLS][];
+    private int recorded;
+    private boolean replaying;
+
+    CountingGL20() {
+        gl = (GL20) Proxy.newProxyInstance(GL20.class.getClassLoader(), new Class<?>[]{GL20.class}, (proxy, method, args) -> {
+            if (replaying) {
+                return Stubs.defaultValue(method);
+            }
+            if (recorded < MAX_RECORDED_CALLS) {
+                calls[recorded] = method;
+                callArgs[recorded] = args;
+            }
+            recorded++;
+            Object result = handle(method.getName(), args);
+            return result == Stubs.DEFAULT ? Stubs.defaultValue(method) : result;
+        });
+    }
+
+    // Call at the start of every frame
+    void reset() {
+        drawCalls = 0;
+        textureBinds = 0;
+        framebufferBinds = 0;
+        framebuffersCreated = 0;
+        recorded = 0;
+    }
+
+    // Bytes the proxy itself allocates for the calls since reset(), measured by making them again
+    long measureStubBytes(LongSupplier allocatedBytes) {
+        if (recorded > MAX_RECORDED_CALLS) {
+            throw new AssertionError(recorded + " GL calls in one frame, only " + MAX_RECORDED_CALLS + " can be replayed");
+        }
+        replaying = true;
+        try {
+            long start = allocatedBytes.getAsLong();
+            for (int i = 0; i < recorded; i++) {
+                calls[i].invoke(gl, callArgs[i]);
+            }
+            return allocatedBytes.getAsLong() - start;
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new AssertionError("replaying GL calls failed", e);
+        } finally {
+            replaying = false;
+        }
+    }
+
+    private Object handle(String method, Object[] args) {
+        switch (method) {
+            case "glDrawArrays":
+            case "glDrawElements":
+                drawCalls++;
+                return Stubs.DEFAULT;
+            case "glBindTexture":
+                textureBinds++;
+                return Stubs.DEFAULT;
+            case "glBindFramebuffer":
+                framebufferBinds++;
+                return Stubs.DEFAULT;
+            case "glGenFramebuffer":
+                framebuffersCreated++;
+                return nextHandle++;
+            case "glCreateShader":
+            case "glCreateProgram":
+            case "glGenTexture":
+            case "glGenBuffer":
+            case "glGenRenderbuffer":
+                return nextHandle++;
+            case "glGetShaderiv":
+            case "glGetProgramiv":
+                // Every shader compiles and links, and has no active attributes or uniforms to list
+                int pname = (Integer) args[1];
+                boolean ok = pname == GL20.GL_COMPILE_STATUS || pname == GL20.GL_LINK_STATUS;
+                ((IntBuffer) args[2]).put(0, ok ? 1 : 0);
+                return Stubs.DEFAULT;
+            case "glCheckFramebufferStatus":
+                return GL20.GL_FRAMEBUFFER_COMPLETE;
+            case "glGetShaderInfoLog":
+            case "glGetProgramInfoLog":
+                return "";
+            default:
+                return Stubs.DEFAULT;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.mygdx.triangledash;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JobSystemTest {
+    private final ConcurrentLinkedQueue<String> errors = new ConcurrentLinkedQueue<>(); // Gdx.app.error messages
+    private final List<String> debug = new ArrayList<>(); // Gdx.app.debug messages
+    private JobSystem jobs;
+
+    @Before
+    public void setUp() {
+        Gdx.app = Stubs.create(Application.class, (method, args) -> {
+            if (method.equals("error")) {
+                errors.add((String) args[1]);
+            } else if (method.equals("debug")) {
+                debug.add((String) args[1]);
+            }
+            return Stubs.DEFAULT;
+        });
+        jobs = new JobSystem();
+    }
+
+    @After
+    public void tearDown() {
+        jobs.dispose();
+    }
+
+    // Drains on this thread (standing in for the GL thread) until the condition holds
+    private void drainUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue("timed out", System.nanoTime() < deadline);
+            jobs.drainCompletions();
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    public void callbacksRunInSubmissionOrder() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch fastDone = new CountDownLatch(1);
+        List<String> callbacks = new ArrayList<>();
+
+        jobs.submit("slow", () -> {
+            release.await();
+            return "slow";
+        }, callbacks::add);
+        jobs.submit("fast", () -> {
+            fastDone.countDown();
+            return "fast";
+        }, callbacks::add);
+
+        // The fast job is done, but its callback waits for the slow one
+        assertTrue(fastDone.await(5, TimeUnit.SECONDS));
+        Thread.sleep(20);
+        jobs.drainCompletions();
+        assertTrue(callbacks.isEmpty());
+        assertEquals(2, jobs.getQueueDepth());
+
+        release.countDown();
+        drainUntil(() -> callbacks.size() == 2);
+        assertEquals(List.of("slow", "fast"), callbacks);
+        assertEquals(0, jobs.getQueueDepth());
+    }
+
+    @Test
+    public void serialJobsRunOneAtATimeInOrder() throws InterruptedException {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        List<Integer> ran = new ArrayList<>(); // Only the serial thread writes it
+        List<Integer> callbacks = new ArrayList<>();
+
+        for (int i = 0; i < 50; i++) {
+            int index = i;
+            jobs.submitSerial("serial", () -> {
+                if (running.incrementAndGet() > 1) {
+                    overlaps.incrementAndGet();
+                }
+                ran.add(index);
+                Thread.sleep(1);
+                running.decrementAndGet();
+                return index;
+            }, callbacks::add);
+        }
+
+        drainUntil(() -> callbacks.size() == 50);
+        assertEquals(0, overlaps.get());
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i, (int) ran.get(i));
+            assertEquals(i, (int) callbacks.get(i));
+        }
+    }
+
+    @Test
+    public void failedJobIsReportedAndDoesNotHoldUpLaterJobs() throws InterruptedException {
+        List<String> callbacks = new ArrayList<>();
+
+        jobs.submit("broken", () -> {
+            throw new IllegalStateException("disk full");
+        }, result -> callbacks.add("broken"));
+        jobs.submit("fine", () -> "fine", callbacks::add);
+
+        drainUntil(() -> jobs.getQueueDepth() == 0);
+        assertEquals(List.of("fine"), callbacks);
+        assertEquals(1, jobs.getStats("broken").failed);
+        assertTrue(errors.contains("broken failed"));
+    }
+
+    @Test
+    public void jobThrowingAnErrorStillReleasesLaterCallbacks() throws InterruptedException {
+        List<String> callbacks = new ArrayList<>();
+
+        jobs.submit("first", () -> "first", callbacks::add);
+        jobs.submit("crashing", () -> {
+            throw new AssertionError("not an Exception");
+        }, result -> callbacks.add("crashing"));
+        jobs.submit("last", () -> "last", callbacks::add);
+
+        drainUntil(() -> jobs.getQueueDepth() == 0);
+        assertEquals(List.of("first", "last"), callbacks);
+        assertEquals(1, jobs.getStats("crashing").failed);
+        assertTrue(errors.contains("crashing failed"));
+    }
+
+    @Test
+    public void tracksLatencyAndQueueDepth() throws InterruptedException {
+        for (int i = 0; i < 5; i++) {
+            jobs.submit("sleepy", () -> {
+                Thread.sleep(5);
+                return null;
+            }, null);
+        }
+        assertEquals(5, jobs.getQueueDepth());
+
+        drainUntil(() -> jobs.getQueueDepth() == 0);
+        JobSystem.JobStats stats = jobs.getStats("sleepy");
+        assertEquals(5, stats.count);
+        assertEquals(0, stats.failed);
+        assertTrue(stats.maxRunNanos >= TimeUnit.MILLISECONDS.toNanos(5));
+        assertTrue(stats.maxLatencyNanos >= stats.maxRunNanos);
+        assertTrue(stats.getAverageLatencyMillis() > 0);
+        assertEquals(5, jobs.getMaxQueueDepth());
+
+        jobs.logSummary();
+        assertTrue(debug.stream().anyMatch(line -> line.startsWith("sleepy: 5 done, 0 failed")));
+        assertTrue(debug.stream().anyMatch(line -> line.startsWith("queue depth 0 (max 5")));
+    }
+}
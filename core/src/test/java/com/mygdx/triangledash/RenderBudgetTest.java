@@ -0,0 +1,193 @@
+package com.mygdx.triangledash;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Files;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Graphics;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.mygdx.triangledash.TriangleDashGame.GameState;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Plays a scripted session (menu, a run until the player crashes, game over,
+ * restart) on the headless backend with a counting GL, and fails if any frame
+ * goes over the render budget. The session runs once as is and once with
+ * dynamic resolution on, so the scene FrameBuffer path is held to the same
+ * budget.
+ */
+public class RenderBudgetTest {
+    // Limits per frame
+    static final int MAX_DRAW_CALLS = 6;
+    static final int MAX_TEXTURE_BINDS = MAX_DRAW_CALLS; // SpriteBatch binds its texture once per flush
+    static final int MAX_REBUILD_TEXTURE_BINDS = MAX_TEXTURE_BINDS + 8; // Building the scene FrameBuffer also binds its new texture while setting it up
+    static final int MAX_SPRITES_PER_FLUSH = 64;
+    static final long MAX_BYTES_ALLOCATED = 8 * 1024; // By the game only (text layouts, score strings); the GL stub's share is taken off
+
+    private static final int WARMUP_FRAMES = 5; // First frames of a screen build layouts and pools
+    private static final int MAX_PLAYING_FRAMES = 60 * 60; // A crash is all but certain long before a minute
+
+    private HeadlessApplication app;
+    private TriangleDashGame game;
+    private CountingGL20 counter;
+    private com.sun.management.ThreadMXBean threadBean; // null if this JVM can't count allocations
+    private float deltaTime = 1 / 60f; // What Gdx.graphics.getDeltaTime() reports
+    private boolean spacePressed;
+    private int frame;
+    private int framesOnScreen;
+    private int sceneBufferFrames; // Steady frames drawn through the scene FrameBuffer
+
+    @Before
+    public void setUp() throws IOException {
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        config.preferencesDirectory = java.nio.file.Files.createTempDirectory("triangledash-prefs").toString();
+        config.preferencesFileType = Files.FileType.Absolute;
+        app = new HeadlessApplication(new ApplicationAdapter() {
+        }, config); // Sets up files, audio, preferences and natives; the game itself is stepped by this test
+
+        counter = new CountingGL20();
+        Gdx.gl = Gdx.gl20 = counter.gl;
+        Gdx.gl30 = null;
+        Gdx.graphics = Stubs.create(Graphics.class, (method, args) -> {
+            switch (method) {
+                case "getWidth":
+                case "getBackBufferWidth":
+                    return 720;
+                case "getHeight":
+                case "getBackBufferHeight":
+                    return 1280;
+                case "getDeltaTime":
+                    return deltaTime;
+                case "getDisplayMode":
+                    return new Graphics.DisplayMode(720, 1280, 60, 32) {
+                    };
+                default:
+                    return Stubs.DEFAULT;
+            }
+        });
+        Gdx.input = Stubs.create(Input.class, (method, args) -> {
+            if (method.equals("isKeyJustPressed")) {
+                return spacePressed && (Integer) args[0] == Input.Keys.SPACE;
+            }
+            return Stubs.DEFAULT;
+        });
+
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            threadBean = (com.sun.management.ThreadMXBean) bean;
+            threadBean.setThreadAllocatedMemoryEnabled(true);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        if (game != null) {
+            game.dispose();
+        }
+        app.exit();
+        System.clearProperty("triangledash.dynamicResolution");
+    }
+
+    @Test
+    public void scriptedSessionStaysInBudget() {
+        startGame();
+        playSession();
+    }
+
+    @Test
+    public void dynamicResolutionStaysInBudget() {
+        System.setProperty("triangledash.dynamicResolution", "true");
+        // Every frame misses the 60 Hz refresh, so the scale steps down to its minimum and stays there
+        deltaTime = 1 / 30f;
+        startGame();
+        playSession();
+
+        assertTrue("scene was never drawn through the FrameBuffer", sceneBufferFrames > 100);
+    }
+
+    private void startGame() {
+        game = new TriangleDashGame();
+        game.create();
+        game.resize(720, 1280);
+    }
+
+    private void playSession() {
+        // Sit on the menu
+        for (int i = 0; i < 30; i++) {
+            step(false);
+        }
+        assertEquals(GameState.MENU, game.getGameState());
+
+        // Press space to start, then fly without input until a wall is hit
+        step(true);
+        assertEquals(GameState.PLAYING, game.getGameState());
+        for (int i = 0; i < MAX_PLAYING_FRAMES && game.getGameState() == GameState.PLAYING; i++) {
+            step(false);
+        }
+        assertEquals("player never crashed", GameState.GAME_OVER, game.getGameState());
+
+        // Sit on the game over screen
+        for (int i = 0; i < 30; i++) {
+            step(false);
+        }
+        assertEquals(GameState.GAME_OVER, game.getGameState());
+
+        // Play again
+        step(true);
+        assertEquals(GameState.PLAYING, game.getGameState());
+        for (int i = 0; i < 30 && game.getGameState() == GameState.PLAYING; i++) {
+            step(false);
+        }
+    }
+
+    // Renders one frame and checks it against the budget
+    private void step(boolean pressSpace) {
+        spacePressed = pressSpace;
+        counter.reset();
+        game.spriteBatch.maxSpritesInBatch = 0; // SpriteBatch never resets this itself
+        GameState before = game.getGameState();
+        long startBytes = allocatedBytes();
+
+        game.render();
+
+        long bytes = allocatedBytes() - startBytes;
+        GameState after = game.getGameState();
+        // A rebuilt FrameBuffer loads things once, like a new screen does
+        boolean rebuilt = counter.framebuffersCreated > 0;
+        framesOnScreen = before == after && !rebuilt ? framesOnScreen + 1 : 0;
+        if (counter.framebufferBinds > 0 && !rebuilt) {
+            sceneBufferFrames++;
+        }
+        frame++;
+
+        String where = "frame " + frame + " (" + after + ")";
+        int maxTextureBinds = rebuilt ? MAX_REBUILD_TEXTURE_BINDS : MAX_TEXTURE_BINDS;
+        assertTrue(where + ": " + counter.drawCalls + " draw calls, budget " + MAX_DRAW_CALLS,
+                counter.drawCalls <= MAX_DRAW_CALLS);
+        assertTrue(where + ": " + counter.textureBinds + " texture binds, budget " + maxTextureBinds,
+                counter.textureBinds <= maxTextureBinds);
+        assertTrue(where + ": " + game.spriteBatch.maxSpritesInBatch + " sprites in one flush, budget " + MAX_SPRITES_PER_FLUSH,
+                game.spriteBatch.maxSpritesInBatch <= MAX_SPRITES_PER_FLUSH);
+
+        // Screen changes and the first frames on a screen load things once; judge steady frames only
+        if (threadBean != null && framesOnScreen > WARMUP_FRAMES) {
+            long stubBytes = counter.measureStubBytes(this::allocatedBytes);
+            long gameBytes = Math.max(0, bytes - stubBytes);
+            assertTrue(where + ": " + gameBytes + " bytes allocated (" + stubBytes + " more by the GL stub), budget " + MAX_BYTES_ALLOCATED,
+                    gameBytes <= MAX_BYTES_ALLOCATED);
+        }
+    }
+
+    private long allocatedBytes() {
+        return threadBean == null ? 0 : threadBean.getCurrentThreadAllocatedBytes();
+    }
+}
@@ -0,0 +1,116 @@
+package com.mygdx.triangledash;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ResolutionScalerTest {
+    private static final float FRAME = 1 / 60f; // Made the refresh
+    private static final float MISSED = 2 / 60f; // Missed one refresh (vsync)
+
+    // Feeds the same frame time for the given number of seconds
+    private static void run(ResolutionScaler scaler, float delta, float seconds) {
+        for (float t = 0; t < seconds; t += delta) {
+            scaler.update(delta);
+        }
+    }
+
+    @Test
+    public void stepsDownOneStepWhenFramesMissTheRefresh() {
+        ResolutionScaler scaler = new ResolutionScaler(60);
+        run(scaler, FRAME, 1);
+        assertEquals(ResolutionScaler.MAX_SCALE, scaler.getScale(), 0.0001f);
+
+        run(scaler, MISSED, ResolutionScaler.DOWN_COOLDOWN);
+        assertEquals(ResolutionScaler.MAX_SCALE - ResolutionScaler.STEP, scaler.getScale(), 0.0001f);
+    }
+
+    @Test
+    public void stepsDownWhenFramesAreSlowWithoutVsync() {
+        // 45 fps on a 60 Hz display: never a whole missed refresh, but a third over the target
+        ResolutionScaler scaler = new ResolutionScaler(60);
+        run(scaler, 1 / 45f, 1);
+        assertTrue("scale " + scaler.getScale(), scaler.getScale() < ResolutionScaler.MAX_SCALE);
+    }
+
+    @Test
+    public void holdsScaleWhenFramesAreJustOverTheTarget() {
+        // Timer jitter around the target shouldn't count as slow
+        ResolutionScaler scaler = new ResolutionScaler(60);
+        for (int i = 0; i < 600; i++) {
+            scaler.update(i % 2 == 0 ? 1 / 58f : 1 / 62f);
+        }
+        assertEquals(ResolutionScaler.MAX_SCALE, scaler.getScale(), 0.0001f);
+    }
+
+    @Test
+    public void holdsFullScaleOnSlowerDisplays() {
+        // A 30 or 50 Hz display is on target at its own refresh rate
+        for (int hz : new int[]{30, 50, 144}) {
+            ResolutionScaler scaler = new ResolutionScaler(hz);
+            run(scaler, 1f / hz, 10);
+            assertEquals(hz + " Hz", ResolutionScaler.MAX_SCALE, scaler.getScale(), 0.0001f);
+        }
+    }
+
+    @Test
+    public void stepsUpOnlyAfterUpCooldown() {
+        ResolutionScaler scaler = new ResolutionScaler(60);
+        while (scaler.getScale() == ResolutionScaler.MAX_SCALE) {
+            scaler.update(MISSED);
+        }
+        float lowered = scaler.getScale();
+
+        run(scaler, FRAME, ResolutionScaler.UP_COOLDOWN - 0.1f);
+        assertEquals(lowered, scaler.getScale(), 0.0001f);
+
+        run(scaler, FRAME, 0.2f);
+        assertEquals(lowered + ResolutionScaler.STEP, scaler.getScale(), 0.0001f);
+    }
+
+    @Test
+    public void staysWithinMinAndMaxScale() {
+        ResolutionScaler scaler = new ResolutionScaler(60);
+        run(scaler, 4 / 60f, 60);
+        assertEquals(ResolutionScaler.MIN_SCALE, scaler.getScale(), 0.0001f);
+
+        run(scaler, FRAME, 200);
+        assertEquals(ResolutionScaler.MAX_SCALE, scaler.getScale(), 0.0001f);
+    }
+
+    @Test
+    public void ignoresHitchesLongerThanMaxDelta() {
+        ResolutionScaler scaler = new ResolutionScaler(60);
+        for (int i = 0; i < 100; i++) {
+            scaler.update(ResolutionScaler.MAX_DELTA + 0.5f);
+        }
+        assertEquals(ResolutionScaler.MAX_SCALE, scaler.getScale(), 0.0001f);
+    }
+
+    @Test
+    public void backsOffFromAScaleThatKeepsMissing() {
+        // GPU right at the edge: full scale misses every refresh, one step lower makes it
+        ResolutionScaler scaler = new ResolutionScaler(60);
+        int raises = 0;
+        int latestRaises = 0;
+        float previous = scaler.getScale();
+        float time = 0;
+        while (time < 60) {
+            float delta = scaler.getScale() > ResolutionScaler.MAX_SCALE - ResolutionScaler.STEP / 2 ? MISSED : FRAME;
+            float scale = scaler.update(delta);
+            time += delta;
+            if (scale > previous) {
+                raises++;
+                if (time > 30) {
+                    latestRaises++;
+                }
+            }
+            previous = scale;
+        }
+
+        // Without back-off it would retry every UP_COOLDOWN (about 26 times a minute)
+        assertTrue("raised " + raises + " times", raises <= 6);
+        assertTrue("raised " + latestRaises + " times in the last 30 s", latestRaises <= 2);
+    }
+}
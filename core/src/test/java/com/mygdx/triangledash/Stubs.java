@@ -0,0 +1,49 @@
+package com.mygdx.triangledash;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Makes stand-ins for libGDX interfaces (GL20, Graphics, Input, ...) in tests.
+ * The handler answers the calls a test cares about and returns {@link #DEFAULT}
+ * for everything else, which then returns 0 / false / null.
+ */
+final class Stubs {
+    static final Object DEFAULT = new Object();
+
+    interface Handler {
+        Object handle(String method, Object[] args);
+    }
+
+    private Stubs() {
+    }
+
+    static <T> T create(Class<T> type, Handler handler) {
+        Object stub = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return type.getSimpleName() + " stub";
+            }
+            Object result = handler.handle(method.getName(), args);
+            return result == DEFAULT ? defaultValue(method) : result;
+        });
+        return type.cast(stub);
+    }
+
+    static Object defaultValue(Method method) {
+        Class<?> type = method.getReturnType();
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == float.class) return 0f;
+        if (type == double.class) return 0d;
+        if (type == short.class) return (short) 0;
+        if (type == byte.class) return (byte) 0;
+        if (type == char.class) return (char) 0;
+        return null;
+    }
+}